@@ -0,0 +1,132 @@
+package physiosim.db;
+
+import java.sql.*;
+import java.util.*;
+
+import physiosim.db.VitalRepository.VitalRow;
+
+// 의료인 대시보드: 담당 환자 + 캐릭터 + 최신 바이탈 (한 번의 조인 쿼리)
+// 결과는 의료인별로 캐시, dashboard_epochs(트리거 관리) 값이 바뀌면 다시 조회
+public class DashboardRepository {
+    private final Connection conn;
+
+    // user_id → (epoch, 결과)
+    private final Map<Integer, CacheEntry> cache = new HashMap<>();
+
+    public DashboardRepository(Connection conn) {
+        this.conn = Objects.requireNonNull(conn, "conn is null");
+    }
+
+    // 담당 환자 목록 (캐시 사용): 변경 없으면 epoch 조회 1회로 끝
+    public synchronized List<DashboardRow> findForClinician(int userId) throws SQLException {
+        long epoch = currentEpoch(userId);
+        CacheEntry hit = cache.get(userId);
+        if (hit != null && hit.epoch() == epoch) return hit.rows();
+
+        // epoch 를 먼저 읽었으므로, 사이에 변경이 끼어도 다음 호출에서 다시 조회됨
+        List<DashboardRow> rows = Collections.unmodifiableList(loadForClinician(userId));
+        // 트랜잭션 중에는 캐시에 넣지 않음: 롤백되면 epoch 도 되돌아가 같은 값이 다시 나올 수 있음
+        if (conn.getAutoCommit()) cache.put(userId, new CacheEntry(epoch, rows));
+        return rows;
+    }
+
+    // 캐시 비우기 (로그아웃 등)
+    public synchronized void invalidate(int userId) {
+        cache.remove(userId);
+    }
+
+    public synchronized void invalidateAll() {
+        cache.clear();
+    }
+
+    // 캐시 무시하고 바로 조회
+    public List<DashboardRow> loadForClinician(int userId) throws SQLException {
+        final String sql = """
+            SELECT p.id   AS patient_id,
+                   p.mrn  AS mrn,
+                   p.name AS patient_name,
+                   ca.role_in_care AS role_in_care,
+                   c.id   AS character_id,
+                   c.name AS character_name,
+                   c.sex, c.height_cm, c.weight_kg,
+                   v.id   AS vital_id,
+                   v.hr, v.sbp, v.dbp, v.map, v.rr, v.spo2, v.glucose, v.temp, v.recorded_at
+              FROM care_assignments ca
+              JOIN patients p        ON p.id = ca.patient_id
+              LEFT JOIN characters c ON c.patient_id = p.id
+              LEFT JOIN vitals v     ON v.id = (
+                       SELECT id FROM vitals
+                        WHERE character_id = c.id
+                        ORDER BY recorded_at DESC, id DESC
+                        LIMIT 1)
+             WHERE ca.user_id = ?
+             ORDER BY p.id, c.created_at, c.id
+        """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                List<DashboardRow> list = new ArrayList<>();
+                while (rs.next()) list.add(mapRow(rs));
+                return list;
+            }
+        }
+    }
+
+    // 현재 무효화 카운터 (행이 없으면 0)
+    private long currentEpoch(int userId) throws SQLException {
+        final String sql = "SELECT epoch FROM dashboard_epochs WHERE user_id = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        }
+    }
+
+    // 매퍼 (캐릭터/바이탈 없으면 null)
+    private static DashboardRow mapRow(ResultSet rs) throws SQLException {
+        Integer characterId = (Integer) rs.getObject("character_id");
+        Integer vitalId = (Integer) rs.getObject("vital_id");
+        VitalRow latest = (vitalId == null) ? null : new VitalRow(
+                vitalId,
+                characterId,
+                (Integer) rs.getObject("hr"),
+                (Double) rs.getObject("sbp"),
+                (Double) rs.getObject("dbp"),
+                (Double) rs.getObject("map"),
+                (Integer) rs.getObject("rr"),
+                (Double) rs.getObject("spo2"),
+                (Double) rs.getObject("glucose"),
+                (Double) rs.getObject("temp"),
+                rs.getString("recorded_at")
+        );
+        return new DashboardRow(
+                rs.getInt("patient_id"),
+                rs.getString("mrn"),
+                rs.getString("patient_name"),
+                rs.getString("role_in_care"),
+                characterId,
+                rs.getString("character_name"),
+                rs.getString("sex"),
+                (Double) rs.getObject("height_cm"),
+                (Double) rs.getObject("weight_kg"),
+                latest
+        );
+    }
+
+    private record CacheEntry(long epoch, List<DashboardRow> rows) {}
+
+    // DTO: 환자 1명 × 캐릭터 1개 당 한 행 (캐릭터 없는 환자도 한 행)
+    public static record DashboardRow(
+            int patientId,
+            String mrn,
+            String patientName,
+            String roleInCare,
+            Integer characterId,
+            String characterName,
+            String sex,
+            Double heightCm,
+            Double weightKg,
+            VitalRow latestVital
+    ) {}
+}
@@ -183,8 +183,76 @@ public class Database {
             """);
             
             // 시계열 조회 최적화
-            st.execute("CREATE INDEX IF NOT EXISTS idx_vitals_char ON vitals(character_id)");
             st.execute("CREATE INDEX IF NOT EXISTS idx_vitals_time ON vitals(recorded_at)");
+            // 캐릭터별 조회 + 최신 기록 (대시보드 조인). character_id 단독 인덱스는 이 인덱스의 prefix 라 제거
+            st.execute("CREATE INDEX IF NOT EXISTS idx_vitals_char_time ON vitals(character_id, recorded_at, id)");
+            st.execute("DROP INDEX IF EXISTS idx_vitals_char");
+            // 환자 → 담당 의료인 역방향 조회 (트리거에서 사용)
+            st.execute("CREATE INDEX IF NOT EXISTS idx_care_patient ON care_assignments(patient_id)");
+
+            // 7) dashboard_epochs : 의료인별 대시보드 캐시 무효화 카운터
+            //    care_assignments / characters / vitals 의 INSERT·DELETE 시 트리거가 +1
+            //    (users 삭제 cascade 와 충돌하지 않도록 FK 없음, 남은 행은 무해)
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS dashboard_epochs (
+                  user_id  INTEGER PRIMARY KEY,
+                  epoch    INTEGER NOT NULL DEFAULT 0
+                )
+            """);
+            createDashboardTriggers(st);
+
+            // 8) vital_feed_cursors : 변경 피드 구독자별 마지막 전달 vitals.id (재시작 후 이어받기)
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS vital_feed_cursors (
+                  subscriber     TEXT    PRIMARY KEY,
+                  scope          TEXT    NOT NULL CHECK(scope IN ('CHARACTER','PATIENT')),
+                  scope_id       INTEGER NOT NULL,   -- 구독 대상 (character_id / patient_id)
+                  last_vital_id  INTEGER NOT NULL DEFAULT 0,
+                  updated_at     TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+            """);
+
+            // 9) snapshot_blobs : 시뮬 상태 바이너리 (내용 해시로 중복 제거, 여러 캐릭터가 공유)
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS snapshot_blobs (
+                  id          INTEGER PRIMARY KEY AUTOINCREMENT,
+                  sha256      TEXT    NOT NULL UNIQUE,
+                  data        BLOB    NOT NULL,
+                  created_at  TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+            """);
+
+            // 10) character_snapshots : 캐릭터 ↔ 상태 연결 (fork 시 같은 blob 참조 = copy-on-write)
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS character_snapshots (
+                  character_id    INTEGER PRIMARY KEY,
+                  blob_id         INTEGER NOT NULL,
+                  format_version  INTEGER NOT NULL,
+                  sim_time_sec    REAL    NOT NULL,
+                  saved_at        TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                  FOREIGN KEY(character_id) REFERENCES characters(id)     ON DELETE CASCADE,
+                  FOREIGN KEY(blob_id)      REFERENCES snapshot_blobs(id)
+                )
+            """);
+            st.execute("CREATE INDEX IF NOT EXISTS idx_snap_blob ON character_snapshots(blob_id)");
+            // 더 이상 참조되지 않는 blob 정리
+            st.execute("""
+                CREATE TRIGGER IF NOT EXISTS trg_snap_del_gc AFTER DELETE ON character_snapshots
+                BEGIN
+                  DELETE FROM snapshot_blobs
+                   WHERE id = OLD.blob_id
+                     AND NOT EXISTS (SELECT 1 FROM character_snapshots WHERE blob_id = OLD.blob_id);
+                END
+            """);
+            st.execute("""
+                CREATE TRIGGER IF NOT EXISTS trg_snap_upd_gc AFTER UPDATE OF blob_id ON character_snapshots
+                WHEN OLD.blob_id <> NEW.blob_id
+                BEGIN
+                  DELETE FROM snapshot_blobs
+                   WHERE id = OLD.blob_id
+                     AND NOT EXISTS (SELECT 1 FROM character_snapshots WHERE blob_id = OLD.blob_id);
+                END
+            """);
             
             st.execute("""
                    CREATE TABLE IF NOT EXISTS schema_version(
@@ -205,4 +273,110 @@ public class Database {
             }
         }
     }
+
+    // 대시보드 캐시 무효화 트리거 (epoch 증가 = 해당 의료인의 캐시 폐기)
+    // INSERT/DELETE + 대시보드가 보여주는 컬럼의 UPDATE
+    private static void createDashboardTriggers(Statement st) throws SQLException {
+        // 담당 배정 변경 → 해당 의료인
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_care_ins_epoch AFTER INSERT ON care_assignments
+            BEGIN
+              INSERT INTO dashboard_epochs(user_id, epoch) VALUES (NEW.user_id, 1)
+              ON CONFLICT(user_id) DO UPDATE SET epoch = epoch + 1;
+            END
+        """);
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_care_del_epoch AFTER DELETE ON care_assignments
+            BEGIN
+              INSERT INTO dashboard_epochs(user_id, epoch) VALUES (OLD.user_id, 1)
+              ON CONFLICT(user_id) DO UPDATE SET epoch = epoch + 1;
+            END
+        """);
+
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_care_upd_epoch
+            AFTER UPDATE OF user_id, patient_id, role_in_care ON care_assignments
+            BEGIN
+              INSERT INTO dashboard_epochs(user_id, epoch)
+              SELECT DISTINCT user_id, 1 FROM (SELECT OLD.user_id AS user_id UNION SELECT NEW.user_id)
+               WHERE true
+              ON CONFLICT(user_id) DO UPDATE SET epoch = epoch + 1;
+            END
+        """);
+
+        // 환자 표시 정보 변경 → 그 환자를 담당하는 모든 의료인
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_patient_upd_epoch AFTER UPDATE OF name, mrn ON patients
+            BEGIN
+              INSERT INTO dashboard_epochs(user_id, epoch)
+              SELECT user_id, 1 FROM care_assignments WHERE patient_id = NEW.id
+              ON CONFLICT(user_id) DO UPDATE SET epoch = epoch + 1;
+            END
+        """);
+
+        // 캐릭터 변경 → 그 환자를 담당하는 모든 의료인
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_char_ins_epoch AFTER INSERT ON characters
+            BEGIN
+              INSERT INTO dashboard_epochs(user_id, epoch)
+              SELECT user_id, 1 FROM care_assignments WHERE patient_id = NEW.patient_id
+              ON CONFLICT(user_id) DO UPDATE SET epoch = epoch + 1;
+            END
+        """);
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_char_del_epoch AFTER DELETE ON characters
+            BEGIN
+              INSERT INTO dashboard_epochs(user_id, epoch)
+              SELECT user_id, 1 FROM care_assignments WHERE patient_id = OLD.patient_id
+              ON CONFLICT(user_id) DO UPDATE SET epoch = epoch + 1;
+            END
+        """);
+
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_char_upd_epoch
+            AFTER UPDATE OF patient_id, name, sex, height_cm, weight_kg ON characters
+            BEGIN
+              INSERT INTO dashboard_epochs(user_id, epoch)
+              SELECT DISTINCT user_id, 1 FROM care_assignments
+               WHERE patient_id IN (OLD.patient_id, NEW.patient_id)
+              ON CONFLICT(user_id) DO UPDATE SET epoch = epoch + 1;
+            END
+        """);
+
+        // 바이탈 변경 → 캐릭터의 환자를 담당하는 모든 의료인
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_vitals_ins_epoch AFTER INSERT ON vitals
+            BEGIN
+              INSERT INTO dashboard_epochs(user_id, epoch)
+              SELECT ca.user_id, 1
+                FROM characters c
+                JOIN care_assignments ca ON ca.patient_id = c.patient_id
+               WHERE c.id = NEW.character_id
+              ON CONFLICT(user_id) DO UPDATE SET epoch = epoch + 1;
+            END
+        """);
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_vitals_del_epoch AFTER DELETE ON vitals
+            BEGIN
+              INSERT INTO dashboard_epochs(user_id, epoch)
+              SELECT ca.user_id, 1
+                FROM characters c
+                JOIN care_assignments ca ON ca.patient_id = c.patient_id
+               WHERE c.id = OLD.character_id
+              ON CONFLICT(user_id) DO UPDATE SET epoch = epoch + 1;
+            END
+        """);
+        // 바이탈 값은 모두 대시보드에 나오므로 컬럼 구분 없이
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_vitals_upd_epoch AFTER UPDATE ON vitals
+            BEGIN
+              INSERT INTO dashboard_epochs(user_id, epoch)
+              SELECT DISTINCT ca.user_id, 1
+                FROM characters c
+                JOIN care_assignments ca ON ca.patient_id = c.patient_id
+               WHERE c.id IN (OLD.character_id, NEW.character_id)
+              ON CONFLICT(user_id) DO UPDATE SET epoch = epoch + 1;
+            END
+        """);
+    }
 }
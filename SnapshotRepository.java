@@ -0,0 +1,307 @@
+package physiosim.db;
+
+import java.io.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.util.*;
+import java.util.zip.*;
+
+// 캐릭터 시뮬 상태 스냅샷 (워밍업 없이 바로 시작 / 시나리오 분기)
+// - 상태는 압축 바이너리 1개 → snapshot_blobs (sha256 으로 중복 제거)
+// - character_snapshots 가 캐릭터 → blob 연결, fork 는 연결만 복사 (copy-on-write)
+// - 분기된 캐릭터가 새로 save 하면 새 blob, 참조 없는 blob 은 트리거가 정리
+public class SnapshotRepository {
+
+    // 바이너리 포맷: 'PSNP' + 버전 + deflate(본문)
+    private static final int MAGIC = 0x50534E50;
+    public static final int FORMAT_VERSION = 1;
+
+    private final Connection conn;
+
+    public SnapshotRepository(Connection conn) {
+        this.conn = Objects.requireNonNull(conn, "conn is null");
+    }
+
+    // 스냅샷 저장 (기존 것은 교체)
+    public void save(int characterId, StateSnapshot snap) throws SQLException {
+        Objects.requireNonNull(snap, "snap is null");
+        byte[] data = encode(snap);
+
+        boolean own = conn.getAutoCommit();
+        Savepoint sp = begin(own);
+        try {
+            long blobId = putBlob(data);
+            final String sql = """
+                INSERT INTO character_snapshots(character_id, blob_id, format_version, sim_time_sec)
+                VALUES (?,?,?,?)
+                ON CONFLICT(character_id) DO UPDATE
+                   SET blob_id        = excluded.blob_id,
+                       format_version = excluded.format_version,
+                       sim_time_sec   = excluded.sim_time_sec,
+                       saved_at       = CURRENT_TIMESTAMP
+            """;
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, characterId);
+                ps.setLong(2, blobId);
+                ps.setInt(3, FORMAT_VERSION);
+                ps.setDouble(4, snap.simTimeSec());
+                ps.executeUpdate();
+            }
+            commit(own, sp);
+        } catch (SQLException | RuntimeException e) {
+            rollback(own, sp); // 오류 시 롤백
+            throw e;
+        } finally {
+            end(own);
+        }
+    }
+
+    // 스냅샷 조회 (없으면 null)
+    public StateSnapshot load(int characterId) throws SQLException {
+        final String sql = """
+            SELECT b.data
+              FROM character_snapshots s
+              JOIN snapshot_blobs b ON b.id = s.blob_id
+             WHERE s.character_id = ?
+        """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, characterId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? decode(rs.getBytes(1)) : null;
+            }
+        }
+    }
+
+    // 환자 + 캐릭터명으로 조회 (예: 'baseline', 'ICU-day1'; ux_char_patient_name 사용)
+    public StateSnapshot loadByName(int patientId, String name) throws SQLException {
+        final String sql = """
+            SELECT b.data
+              FROM characters c
+              JOIN character_snapshots s ON s.character_id = c.id
+              JOIN snapshot_blobs b      ON b.id = s.blob_id
+             WHERE c.patient_id = ? AND c.name = ?
+        """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, patientId);
+            ps.setString(2, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? decode(rs.getBytes(1)) : null;
+            }
+        }
+    }
+
+    // 스냅샷 분기: 원본 캐릭터를 같은 환자 아래 새 이름으로 복사하고 같은 상태 blob 공유
+    // 반환: 새 캐릭터 id (원본 캐릭터/스냅샷 없으면 -1)
+    public int fork(int sourceCharacterId, String newName, int createdByUserId) throws SQLException {
+        if (newName == null || newName.isBlank()) throw new IllegalArgumentException("blank");
+
+        boolean own = conn.getAutoCommit();
+        Savepoint sp = begin(own);
+        try {
+            int newId;
+            final String copyChar = """
+                INSERT INTO characters(patient_id, created_by_user_id, name, sex, height_cm, weight_kg)
+                SELECT c.patient_id, ?, ?, c.sex, c.height_cm, c.weight_kg
+                  FROM characters c
+                  JOIN character_snapshots s ON s.character_id = c.id
+                 WHERE c.id = ?
+            """;
+            try (PreparedStatement ps = conn.prepareStatement(copyChar, Statement.RETURN_GENERATED_KEYS)) {
+                ps.setInt(1, createdByUserId);
+                ps.setString(2, newName.trim());
+                ps.setInt(3, sourceCharacterId);
+                if (ps.executeUpdate() == 0) {
+                    commit(own, sp); // 변경 없음
+                    return -1;
+                }
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    newId = rs.next() ? rs.getInt(1) : -1;
+                }
+            }
+
+            final String linkSnap = """
+                INSERT INTO character_snapshots(character_id, blob_id, format_version, sim_time_sec)
+                SELECT ?, blob_id, format_version, sim_time_sec
+                  FROM character_snapshots
+                 WHERE character_id = ?
+            """;
+            try (PreparedStatement ps = conn.prepareStatement(linkSnap)) {
+                ps.setInt(1, newId);
+                ps.setInt(2, sourceCharacterId);
+                ps.executeUpdate();
+            }
+            commit(own, sp);
+            return newId;
+        } catch (SQLException | RuntimeException e) {
+            rollback(own, sp); // 이름 중복(ux_char_patient_name) 등
+            throw e;
+        } finally {
+            end(own);
+        }
+    }
+
+    // 스냅샷 삭제 (캐릭터는 유지)
+    public boolean delete(int characterId) throws SQLException {
+        final String sql = "DELETE FROM character_snapshots WHERE character_id = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, characterId);
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    // 트랜잭션 처리: autocommit 이면 직접 트랜잭션을 열고 commit,
+    // 호출자가 이미 트랜잭션 중이면 SAVEPOINT 만 쓰고 commit 은 호출자에게 맡김
+    private Savepoint begin(boolean own) throws SQLException {
+        if (own) {
+            conn.setAutoCommit(false);
+            return null;
+        }
+        return conn.setSavepoint();
+    }
+
+    private void commit(boolean own, Savepoint sp) throws SQLException {
+        if (own) conn.commit();
+        else conn.releaseSavepoint(sp);
+    }
+
+    private void rollback(boolean own, Savepoint sp) throws SQLException {
+        if (own) conn.rollback();
+        else {
+            conn.rollback(sp); // 호출자의 이전 작업은 유지
+            conn.releaseSavepoint(sp);
+        }
+    }
+
+    private void end(boolean own) {
+        if (own) {
+            try { conn.setAutoCommit(true); }
+            catch (SQLException ignored) {}
+        }
+    }
+
+    // 같은 내용이면 기존 blob 재사용
+    private long putBlob(byte[] data) throws SQLException {
+        String hash = sha256(data);
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO snapshot_blobs(sha256, data) VALUES (?,?) ON CONFLICT(sha256) DO NOTHING")) {
+            ps.setString(1, hash);
+            ps.setBytes(2, data);
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT id FROM snapshot_blobs WHERE sha256 = ?")) {
+            ps.setString(1, hash);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) throw new SQLException("snapshot blob not found: " + hash);
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    // 직렬화: 변수명(UTF) + double, 삽입 순서 유지
+    static byte[] encode(StateSnapshot snap) {
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            DataOutputStream head = new DataOutputStream(bos);
+            head.writeInt(MAGIC);
+            head.writeShort(FORMAT_VERSION);
+            head.flush();
+
+            Deflater def = new Deflater(Deflater.BEST_SPEED);
+            try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bos, def))) {
+                out.writeDouble(snap.simTimeSec());
+                writeMap(out, snap.variables());
+                writeMap(out, snap.controller());
+            } finally {
+                def.end();
+            }
+            return bos.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // 메모리 스트림이라 발생하지 않음
+        }
+    }
+
+    static StateSnapshot decode(byte[] data) throws SQLException {
+        try (DataInputStream head = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (head.readInt() != MAGIC) throw new SQLException("Not a snapshot blob");
+            int version = head.readUnsignedShort();
+            if (version != FORMAT_VERSION)
+                throw new SQLException("Unsupported snapshot format: " + version);
+
+            try (DataInputStream in = new DataInputStream(new InflaterInputStream(head))) {
+                double simTime = in.readDouble();
+                Map<String, Double> vars = readMap(in);
+                Map<String, Double> ctrl = readMap(in);
+                return new StateSnapshot(simTime, vars, ctrl);
+            }
+        } catch (IOException e) {
+            throw new SQLException("Corrupt snapshot blob", e);
+        }
+    }
+
+    private static void writeMap(DataOutputStream out, Map<String, Double> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, Double> e : map.entrySet()) {
+            out.writeUTF(e.getKey());
+            out.writeDouble(e.getValue());
+        }
+    }
+
+    private static Map<String, Double> readMap(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        if (n < 0) throw new IOException("negative size");
+        Map<String, Double> map = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) map.put(in.readUTF(), in.readDouble());
+        return map;
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            byte[] d = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(d);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // DTO: 시뮬 시각 + 생리 변수 + 항상성 제어기 상태 (이름 → 값)
+    public static record StateSnapshot(
+            double simTimeSec,
+            Map<String, Double> variables,
+            Map<String, Double> controller
+    ) {
+        public StateSnapshot {
+            // 순서 유지 + 불변 (null 값 불가)
+            variables = Collections.unmodifiableMap(new LinkedHashMap<>(
+                    Objects.requireNonNull(variables, "variables is null")));
+            controller = Collections.unmodifiableMap(new LinkedHashMap<>(
+                    Objects.requireNonNull(controller, "controller is null")));
+            checkEntries(variables, "variable");
+            checkEntries(controller, "controller");
+        }
+
+        // 키: null 불가, writeUTF 한도(65535 bytes) 이내 / 값: null 불가
+        private static void checkEntries(Map<String, Double> map, String what) {
+            for (Map.Entry<String, Double> e : map.entrySet()) {
+                String key = e.getKey();
+                if (key == null)
+                    throw new IllegalArgumentException("null " + what + " name");
+                if (utfLength(key) > 65535)
+                    throw new IllegalArgumentException(what + " name too long: " + key.length() + " chars");
+                if (e.getValue() == null)
+                    throw new IllegalArgumentException("null " + what + " value: " + key);
+            }
+        }
+
+        // DataOutputStream.writeUTF 기준 길이 (modified UTF-8)
+        private static int utfLength(String s) {
+            int n = 0;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                n += (c >= 0x0001 && c <= 0x007F) ? 1 : (c <= 0x07FF ? 2 : 3);
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package physiosim.db;
+
+import java.sql.*;
+import java.util.*;
+
+import physiosim.db.VitalRepository.VitalRow;
+
+// vitals 변경 피드: 구독자별 커서(vitals.id) 이후의 새 기록만 묶음으로 전달
+// - vitals.id 는 AUTOINCREMENT → 재사용 없이 단조 증가 (high-water mark)
+// - SQLite 는 쓰기가 직렬화되므로 id 순서 = 커밋 순서, id > 커서 로 읽으면 누락 없음
+// - 커서는 vital_feed_cursors 에 저장 → 재시작 후 이어받기 (at-least-once)
+public class VitalFeed {
+
+    // 한 번에 읽는 최대 행 수
+    private static final int BATCH_SIZE = 500;
+
+    // 리스너가 실패한 구독자의 재시도 대기 (1초부터 두 배씩, 최대 60초)
+    // 대기 중인 구독자는 읽기 시작점 계산에서 빠짐 → 한 구독자가 쓰기 경로 전체를 붙잡지 않음
+    private static final long RETRY_BASE_MS = 1_000;
+    private static final long RETRY_MAX_MS = 60_000;
+
+    private final Connection conn;
+    private final Map<String, Subscription> subs = new LinkedHashMap<>();
+
+    // 다른 프로세스/커넥션의 커밋 감지용 (PRAGMA data_version)
+    private long lastDataVersion = -1;
+
+    public VitalFeed(Connection conn) {
+        this.conn = Objects.requireNonNull(conn, "conn is null");
+    }
+
+    // 캐릭터 단위 구독
+    public synchronized void subscribeCharacter(String subscriber, int characterId,
+                                                Listener listener) throws SQLException {
+        subscribe(subscriber, Scope.CHARACTER, characterId, listener);
+    }
+
+    // 환자 단위 구독 (그 환자의 모든 캐릭터)
+    public synchronized void subscribePatient(String subscriber, int patientId,
+                                              Listener listener) throws SQLException {
+        subscribe(subscriber, Scope.PATIENT, patientId, listener);
+    }
+
+    // 구독 해제 (저장된 커서는 남겨 둠 → 같은 이름으로 다시 구독하면 이어받음)
+    public synchronized void unsubscribe(String subscriber) {
+        subs.remove(subscriber);
+    }
+
+    // 저장된 커서까지 삭제 (다음 구독은 현재 high-water mark 부터)
+    public synchronized void reset(String subscriber) throws SQLException {
+        subs.remove(subscriber);
+        try (PreparedStatement ps = conn.prepareStatement(
+                "DELETE FROM vital_feed_cursors WHERE subscriber = ?")) {
+            ps.setString(1, subscriber);
+            ps.executeUpdate();
+        }
+    }
+
+    // 현재 high-water mark (없으면 0)
+    public long highWaterMark() throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) FROM vitals")) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    // 새 기록을 모든 구독자에게 전달 (쓰기 경로/commit 직후 호출)
+    // 리스너 예외는 모든 구독자 처리 후 첫 번째 것을 다시 던짐
+    public synchronized void pump() throws SQLException {
+        // 트랜잭션 중이면 미커밋 기록이 보임 → 롤백 후 id 가 재사용되면 새 기록을 영영 건너뜀
+        if (!conn.getAutoCommit())
+            throw new IllegalStateException("pump() inside a transaction. Call it after commit.");
+
+        long now = System.currentTimeMillis();
+        List<Subscription> ready = new ArrayList<>();
+        for (Subscription s : subs.values()) {
+            if (s.retryAtMs <= now) ready.add(s);
+        }
+        if (ready.isEmpty()) return;
+
+        long from = Long.MAX_VALUE;
+        for (Subscription s : ready) from = Math.min(from, s.cursor);
+
+        RuntimeException failure = null;
+        try {
+            while (true) {
+                List<FeedRow> batch = readAfter(from);
+                if (batch.isEmpty()) break;
+
+                for (Subscription s : ready) {
+                    if (s.failed) continue; // 순서 보장: 실패 이후 기록은 이번 pump 에서 보내지 않음
+                    List<VitalRow> mine = new ArrayList<>();
+                    for (FeedRow r : batch) {
+                        if (r.vital.id() > s.cursor && s.matches(r)) mine.add(r.vital);
+                    }
+                    long last = batch.get(batch.size() - 1).vital.id();
+                    if (last <= s.cursor) continue;
+
+                    if (!mine.isEmpty()) {
+                        try {
+                            s.listener.onVitals(Collections.unmodifiableList(mine));
+                            s.dirty = true;
+                        } catch (RuntimeException e) {
+                            // 실패한 구독자는 커서를 유지 → 대기 후 재전달
+                            s.failed = true;
+                            if (failure == null) failure = e;
+                            continue;
+                        }
+                    }
+                    s.cursor = last; // 해당 없는 기록도 건너뛴 것으로 처리 (메모리만)
+                }
+                if (batch.size() < BATCH_SIZE) break;
+                from = batch.get(batch.size() - 1).vital.id();
+            }
+            saveCursors(ready);
+        } finally {
+            // SQLException 으로 중간에 끝나도 실패 표시/대기 시간은 정리
+            for (Subscription s : ready) {
+                if (s.failed) {
+                    s.failures++;
+                    long delay = RETRY_BASE_MS << Math.min(s.failures - 1, 6);
+                    s.retryAtMs = now + Math.min(delay, RETRY_MAX_MS);
+                    s.failed = false;
+                } else {
+                    s.failures = 0;
+                    s.retryAtMs = 0;
+                }
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    // 다른 커넥션이 커밋했을 때만 pump (bedside 모니터 등 별도 프로세스의 tail 용)
+    // data_version 은 메모리 값 조회라 주기적으로 불러도 부담 없음
+    public synchronized boolean pumpIfChanged() throws SQLException {
+        long v;
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("PRAGMA data_version")) {
+            v = rs.next() ? rs.getLong(1) : 0L;
+        }
+        if (v == lastDataVersion && !retryDue()) return false;
+        pump();
+        lastDataVersion = v; // pump 실패 시 다음 호출에서 다시 시도
+        return true;
+    }
+
+    // 대기 시간이 지난 실패 구독자가 있는지 (새 커밋이 없어도 재시도)
+    private boolean retryDue() {
+        long now = System.currentTimeMillis();
+        for (Subscription s : subs.values()) {
+            if (s.failures > 0 && s.retryAtMs <= now) return true;
+        }
+        return false;
+    }
+
+    private void subscribe(String subscriber, Scope scope, int scopeId,
+                           Listener listener) throws SQLException {
+        Objects.requireNonNull(subscriber, "subscriber is null");
+        Objects.requireNonNull(listener, "listener is null");
+        if (subscriber.isBlank()) throw new IllegalArgumentException("blank");
+        if (subs.containsKey(subscriber))
+            throw new IllegalArgumentException("Already subscribed: " + subscriber);
+
+        // 저장된 커서가 있으면 이어받고, 없으면 지금부터
+        // 같은 이름이라도 대상이 다르면 이어받지 않음 (reset() 후 다시 구독)
+        StoredCursor saved = loadCursor(subscriber);
+        long cursor;
+        if (saved == null) {
+            cursor = highWaterMark();
+            insertCursor(subscriber, scope, scopeId, cursor);
+        } else if (saved.scope() != scope || saved.scopeId() != scopeId) {
+            throw new IllegalArgumentException("Subscriber " + subscriber + " has a cursor for "
+                    + saved.scope() + " " + saved.scopeId() + ", not " + scope + " " + scopeId
+                    + ". Call reset() first.");
+        } else {
+            cursor = saved.lastVitalId();
+        }
+
+        subs.put(subscriber, new Subscription(subscriber, scope, scopeId, listener, cursor));
+    }
+
+    private List<FeedRow> readAfter(long afterId) throws SQLException {
+        final String sql = """
+            SELECT v.id, v.character_id, v.hr, v.sbp, v.dbp, v.map, v.rr, v.spo2, v.glucose, v.temp,
+                   v.recorded_at, c.patient_id
+              FROM vitals v
+              JOIN characters c ON c.id = v.character_id
+             WHERE v.id > ?
+             ORDER BY v.id
+             LIMIT ?
+        """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, afterId);
+            ps.setInt(2, BATCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                List<FeedRow> list = new ArrayList<>();
+                while (rs.next()) {
+                    list.add(new FeedRow(VitalRepository.mapRow(rs), rs.getInt("patient_id")));
+                }
+                return list;
+            }
+        }
+    }
+
+    private StoredCursor loadCursor(String subscriber) throws SQLException {
+        final String sql = """
+            SELECT scope, scope_id, last_vital_id
+              FROM vital_feed_cursors
+             WHERE subscriber = ?
+        """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, subscriber);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                return new StoredCursor(Scope.valueOf(rs.getString("scope")),
+                        rs.getInt("scope_id"), rs.getLong("last_vital_id"));
+            }
+        }
+    }
+
+    private void insertCursor(String subscriber, Scope scope, int scopeId, long lastId) throws SQLException {
+        final String sql = """
+            INSERT INTO vital_feed_cursors(subscriber, scope, scope_id, last_vital_id)
+            VALUES (?,?,?,?)
+        """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, subscriber);
+            ps.setString(2, scope.name());
+            ps.setInt(3, scopeId);
+            ps.setLong(4, lastId);
+            ps.executeUpdate();
+        }
+    }
+
+    // 실제로 전달한 구독자의 커서만 한 트랜잭션으로 저장
+    // 해당 없는 기록만 건너뛴 커서는 저장하지 않음 (재시작 후 다시 읽어도 전달할 것이 없음)
+    private void saveCursors(List<Subscription> list) throws SQLException {
+        List<Subscription> dirty = new ArrayList<>();
+        for (Subscription s : list) {
+            if (s.dirty) dirty.add(s);
+        }
+        if (dirty.isEmpty()) return;
+
+        final String sql = """
+            UPDATE vital_feed_cursors
+               SET last_vital_id = ?,
+                   updated_at    = CURRENT_TIMESTAMP
+             WHERE subscriber = ?
+        """;
+        conn.setAutoCommit(false);
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (Subscription s : dirty) {
+                ps.setLong(1, s.cursor);
+                ps.setString(2, s.name);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            conn.commit();
+            for (Subscription s : dirty) s.dirty = false;
+        } catch (SQLException e) {
+            conn.rollback(); // 다음 pump 에서 다시 저장 (그 사이 재시작하면 재전달)
+            throw e;
+        } finally {
+            try { conn.setAutoCommit(true); }
+            catch (SQLException ignored) {}
+        }
+    }
+
+    // 구독자 콜백: 커서 이후의 새 기록 (id 오름차순)
+    @FunctionalInterface
+    public interface Listener {
+        void onVitals(List<VitalRow> batch);
+    }
+
+    private enum Scope { CHARACTER, PATIENT }
+
+    private record FeedRow(VitalRow vital, int patientId) {}
+
+    private record StoredCursor(Scope scope, int scopeId, long lastVitalId) {}
+
+    private static final class Subscription {
+        final String name;
+        final Scope scope;
+        final int scopeId;
+        final Listener listener;
+        long cursor;
+        boolean failed;     // 이번 pump 에서 실패
+        boolean dirty;      // 전달했지만 커서를 아직 저장하지 않음
+        int failures;       // 연속 실패 횟수
+        long retryAtMs;     // 이 시각 전에는 전달하지 않음
+
+        Subscription(String name, Scope scope, int scopeId, Listener listener, long cursor) {
+            this.name = name;
+            this.scope = scope;
+            this.scopeId = scopeId;
+            this.listener = listener;
+            this.cursor = cursor;
+        }
+
+        boolean matches(FeedRow r) {
+            return scope == Scope.CHARACTER
+                    ? r.vital().characterId() == scopeId
+                    : r.patientId() == scopeId;
+        }
+    }
+}
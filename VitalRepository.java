@@ -2,15 +2,25 @@ package physiosim.db;
 
 import java.sql.*;
 import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 //TABLE 관리!
 public class VitalRepository {
+    private static final Logger LOG = Logger.getLogger(VitalRepository.class.getName());
+
     private final Connection conn;
+    private VitalFeed feed; // 선택: 쓰기 직후 구독자에게 전달
 
     public VitalRepository(Connection conn) {
         this.conn = Objects.requireNonNull(conn, "conn is null");
     }
 
+    // 변경 피드 연결 (null 이면 해제)
+    public void setFeed(VitalFeed feed) {
+        this.feed = feed;
+    }
+
     // 바이탈 기록 삽입 및 생성된 ID 반환
     public int insert(int characterId, Integer hr, Double sbp, Double dbp,
                       Double map, Integer rr, Double spo2, Double glucose, Double temp) throws SQLException {
@@ -30,9 +40,23 @@ public class VitalRepository {
             if (temp == null) ps.setNull(9, Types.REAL); else ps.setDouble(9, temp);
 
             ps.executeUpdate();
+            int id;
             try (ResultSet rs = ps.getGeneratedKeys()) {
-                return rs.next() ? rs.getInt(1) : -1;
+                id = rs.next() ? rs.getInt(1) : -1;
             }
+            // 트랜잭션 중이면 롤백될 수 있으므로 commit 후 호출자가 feed.pump()
+            if (feed != null && conn.getAutoCommit()) pumpQuietly();
+            return id;
+        }
+    }
+
+    // 이미 저장된 기록이므로 전달 실패가 insert 실패로 보이면 안 됨 (재시도 → 중복 기록)
+    // 실패한 구독자는 커서를 유지하므로 다음 pump 에서 다시 전달됨
+    private void pumpQuietly() {
+        try {
+            feed.pump();
+        } catch (SQLException | RuntimeException e) {
+            LOG.log(Level.WARNING, "vital feed delivery failed", e);
         }
     }
 
@@ -92,8 +116,8 @@ public class VitalRepository {
         }
     }
 
-    // 매퍼
-    private static VitalRow mapRow(ResultSet rs) throws SQLException {
+    // 매퍼 (VitalFeed 에서도 사용)
+    static VitalRow mapRow(ResultSet rs) throws SQLException {
         return new VitalRow(
                 rs.getInt("id"),
                 rs.getInt("character_id"),